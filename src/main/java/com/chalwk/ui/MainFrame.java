@@ -10,6 +10,8 @@ package com.chalwk.ui;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.net.URL;
 
 public class MainFrame extends JFrame {
@@ -39,7 +41,16 @@ public class MainFrame extends JFrame {
 
         // Create main panel with modern layout
         setLayout(new BorderLayout());
-        add(new PasswordPanel(), BorderLayout.CENTER);
+        PasswordPanel passwordPanel = new PasswordPanel();
+        add(passwordPanel, BorderLayout.CENTER);
+
+        // Flush and checkpoint the password history before the JVM exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                passwordPanel.closeHistory();
+            }
+        });
 
         pack();
         setLocationRelativeTo(null); // Center on screen
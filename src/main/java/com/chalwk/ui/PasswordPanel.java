@@ -13,14 +13,20 @@ import com.chalwk.ui.components.Buttons;
 import com.chalwk.ui.components.TextField;
 import com.chalwk.util.ClipboardUtil;
 import com.chalwk.util.PasswordGeneratorEngine;
+import com.chalwk.util.PasswordHistory;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 public class PasswordPanel extends JPanel {
 
+    // Regenerate at most this many times when a password was already issued
+    private static final int MAX_REUSE_ATTEMPTS = 100;
+
     private TextField passwordField;
     private JSpinner lengthSpinner;
     private JCheckBox uppercaseCheckbox;
@@ -29,9 +35,13 @@ public class PasswordPanel extends JPanel {
     private JCheckBox symbolsCheckbox;
     private JCheckBox excludeSimilarCheckbox;
     private JCheckBox excludeAmbiguousCheckbox;
+    private JCheckBox historyCheckbox;
     private JSlider entropySlider;
     private JLabel entropyLabel;
     private JProgressBar strengthBar;
+    private Buttons generateButton;
+    // Opened and written on a background worker; closed from the window listener
+    private volatile PasswordHistory history;
 
     public PasswordPanel() {
         initializePanel();
@@ -63,6 +73,7 @@ public class PasswordPanel extends JPanel {
         symbolsCheckbox = createCheckbox("Symbols (!@#$%^&*)", true);
         excludeSimilarCheckbox = createCheckbox("Exclude Similar Characters (i,l,1,L,o,0,O)", false);
         excludeAmbiguousCheckbox = createCheckbox("Exclude Ambiguous Characters ({ } [ ] ( ) | ` ~ ; : , . < >)", false);
+        historyCheckbox = createCheckbox("Keep Encrypted History (never reissue a password)", false);
 
         // Entropy slider
         entropySlider = new JSlider(0, 100, 50);
@@ -78,7 +89,7 @@ public class PasswordPanel extends JPanel {
         strengthBar.setForeground(new Color(220, 53, 69)); // Red by default
 
         // Buttons
-        Buttons generateButton = new Buttons("Generate Password");
+        generateButton = new Buttons("Generate Password");
         Buttons copyButton = new Buttons("Copy to Clipboard");
 
         // Add action listeners
@@ -170,6 +181,8 @@ public class PasswordPanel extends JPanel {
         optionsPanel.add(symbolsCheckbox);
         optionsPanel.add(excludeSimilarCheckbox);
         optionsPanel.add(excludeAmbiguousCheckbox);
+        optionsPanel.add(historyCheckbox);
+        optionsPanel.add(new JLabel()); // Empty cell for layout
 
         // Entropy slider
         JPanel entropyPanel = new JPanel(new BorderLayout(5, 5));
@@ -212,10 +225,90 @@ public class PasswordPanel extends JPanel {
         );
 
         String password = PasswordGeneratorEngine.generatePassword(config);
+        if (historyCheckbox.isSelected()) {
+            generateWithHistory(config, password);
+            return;
+        }
         passwordField.setText(password);
         updateStrengthIndicator(password);
     }
 
+    /**
+     * Generates and records a password on a background thread, since opening the
+     * history may rescan the log. The previous password stays in the field unless
+     * an unused one was found and recorded.
+     */
+    private void generateWithHistory(PasswordConfig config, String candidate) {
+        generateButton.setEnabled(false);
+
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws IOException {
+                try {
+                    PasswordHistory current = history;
+                    if (current == null) {
+                        current = PasswordHistory.open(PasswordHistory.defaultDirectory());
+                        history = current;
+                    }
+
+                    String password = candidate;
+                    for (int attempt = 0; attempt < MAX_REUSE_ATTEMPTS && current.contains(password); attempt++) {
+                        password = PasswordGeneratorEngine.generatePassword(config);
+                    }
+                    if (current.contains(password)) {
+                        return null;
+                    }
+
+                    current.append(password);
+                    current.sync();
+                    return password;
+                } catch (IOException e) {
+                    // Discard the instance so a later retry reopens and recovers the log
+                    closeHistory();
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void done() {
+                generateButton.setEnabled(true);
+                try {
+                    String password = get();
+                    if (password == null) {
+                        JOptionPane.showMessageDialog(PasswordPanel.this,
+                                "Every generated password was already issued. Try a longer length or more character types.",
+                                "Password History",
+                                JOptionPane.WARNING_MESSAGE);
+                        return;
+                    }
+                    passwordField.setText(password);
+                    updateStrengthIndicator(password);
+                } catch (ExecutionException e) {
+                    historyCheckbox.setSelected(false);
+                    JOptionPane.showMessageDialog(PasswordPanel.this,
+                            "Password history is unavailable: " + e.getCause().getMessage(),
+                            "Password History",
+                            JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    public void closeHistory() {
+        PasswordHistory current = history;
+        if (current == null) {
+            return;
+        }
+        history = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            System.err.println("Error closing password history: " + e.getMessage());
+        }
+    }
+
     private void copyToClipboard() {
         String password = passwordField.getText();
         if (!password.isEmpty()) {
@@ -27,6 +27,11 @@ public class PasswordGeneratorEngine {
     private static final String AMBIGUOUS_CHARS = "{}[]()|`~;:,.<>";
 
     public static String generatePassword(PasswordConfig config) {
+        return generatePassword(config, random);
+    }
+
+    // Lets callers that generate in bulk supply their own source instead of contending on the shared one
+    static String generatePassword(PasswordConfig config, Random random) {
         validateConfig(config);
 
         StringBuilder charPool = new StringBuilder();
@@ -38,7 +43,7 @@ public class PasswordGeneratorEngine {
             charPool.append(uppercase);
             // Ensure at least one uppercase if selected
             if (!uppercase.isEmpty()) {
-                password.append(getRandomChar(uppercase));
+                password.append(getRandomChar(uppercase, random));
             }
         }
 
@@ -46,7 +51,7 @@ public class PasswordGeneratorEngine {
             String lowercase = filterCharacters(LOWERCASE, config);
             charPool.append(lowercase);
             if (!lowercase.isEmpty()) {
-                password.append(getRandomChar(lowercase));
+                password.append(getRandomChar(lowercase, random));
             }
         }
 
@@ -54,7 +59,7 @@ public class PasswordGeneratorEngine {
             String numbers = filterCharacters(NUMBERS, config);
             charPool.append(numbers);
             if (!numbers.isEmpty()) {
-                password.append(getRandomChar(numbers));
+                password.append(getRandomChar(numbers, random));
             }
         }
 
@@ -62,7 +67,7 @@ public class PasswordGeneratorEngine {
             String symbols = filterCharacters(SYMBOLS, config);
             charPool.append(symbols);
             if (!symbols.isEmpty()) {
-                password.append(getRandomChar(symbols));
+                password.append(getRandomChar(symbols, random));
             }
         }
 
@@ -74,11 +79,11 @@ public class PasswordGeneratorEngine {
         // Fill remaining characters
         int remainingLength = config.getLength() - password.length();
         for (int i = 0; i < remainingLength; i++) {
-            password.append(getRandomChar(charPool.toString()));
+            password.append(getRandomChar(charPool.toString(), random));
         }
 
         // Shuffle the password to randomize character positions
-        return shuffleString(password.toString());
+        return shuffleString(password.toString(), random);
     }
 
     private static String filterCharacters(String characters, PasswordConfig config) {
@@ -103,14 +108,14 @@ public class PasswordGeneratorEngine {
         return filtered.toString();
     }
 
-    private static char getRandomChar(String characters) {
+    private static char getRandomChar(String characters, Random random) {
         if (characters.isEmpty()) {
             throw new IllegalArgumentException("Character pool is empty");
         }
         return characters.charAt(random.nextInt(characters.length()));
     }
 
-    private static String shuffleString(String input) {
+    private static String shuffleString(String input, Random random) {
         List<Character> characters = new ArrayList<>();
         for (char c : input.toCharArray()) {
             characters.add(c);
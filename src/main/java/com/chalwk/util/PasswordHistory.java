@@ -0,0 +1,608 @@
+/**
+ * Random Password Generator
+ * Copyright (c) 2025 Jericho Crosby (Chalwk)
+ * <p>
+ * This project is licensed under the MIT License.
+ * See LICENSE file for details.
+ */
+
+package com.chalwk.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * Opt-in, append-only record of every password the generator has issued.
+ * <p>
+ * The log starts with {@code [int magic][long key check]}, binding it to the
+ * key it was written under. Each entry after that is length-prefixed and stored as
+ * {@code [int length][long fingerprint][12-byte IV][AES-GCM ciphertext]}.
+ * The fingerprint is a truncated HMAC of the password, so duplicate checks
+ * only ever need the plaintext headers: startup loads the last index
+ * checkpoint and then scans headers past it, without decrypting anything.
+ * Writes go straight to the channel and are fsync'd in batches; callers that
+ * append interactively should {@link #sync()} after each append. The index is
+ * checkpointed periodically as well as on close, so an unclean exit only leaves
+ * a short tail to rescan.
+ * <p>
+ * Opening scans the log and so may take a while; call it off the event thread.
+ */
+public class PasswordHistory implements AutoCloseable {
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final String LOG_FILE = "history.log";
+    private static final String INDEX_FILE = "history.idx";
+    private static final String KEY_FILE = "history.key";
+
+    private static final int LOG_MAGIC = 0x5250474C; // "RPGL"
+    private static final int INDEX_MAGIC = 0x52504749; // "RPGI"
+    private static final int LOG_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int INDEX_HEADER_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+    // NUL-prefixed so it can never be the UTF-8 of a generated password
+    private static final byte[] KEY_CHECK_LABEL = "\0history-key-check".getBytes(StandardCharsets.UTF_8);
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int IV_SIZE = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    private static final int SYNC_BATCH = 32;
+    private static final int CHECKPOINT_INTERVAL = 1024;
+    // Lower bound on a record's size (8-character password), used to presize the index
+    private static final int ESTIMATED_RECORD_SIZE = Integer.BYTES + Long.BYTES + IV_SIZE + TAG_BITS / 8 + 8;
+
+    // Everything under the history directory is readable by its owner only
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    private static final String DIRECTORY_PERMISSIONS = "rwx------";
+    private static final String FILE_PERMISSIONS = "rw-------";
+
+    private final Path directory;
+    private final FileChannel log;
+    private final SecretKeySpec cipherKey;
+    private final SecretKeySpec fingerprintKey;
+    private final LongHashSet index;
+    private final long keyCheck;
+    private int pendingSync;
+    private int sinceCheckpoint;
+
+    private PasswordHistory(Path directory, FileChannel log, byte[] key, long keyCheck, LongHashSet index) {
+        this.directory = directory;
+        this.log = log;
+        this.cipherKey = new SecretKeySpec(key, 0, 32, "AES");
+        this.fingerprintKey = new SecretKeySpec(key, 32, 32, "HmacSHA256");
+        this.keyCheck = keyCheck;
+        this.index = index;
+    }
+
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".randompasswordgenerator");
+    }
+
+    public static PasswordHistory open(Path directory) throws IOException {
+        Files.createDirectories(directory, ownerOnly(DIRECTORY_PERMISSIONS));
+        restrictToOwner(directory, DIRECTORY_PERMISSIONS);
+
+        Path logFile = directory.resolve(LOG_FILE);
+        FileChannel log = FileChannel.open(logFile, EnumSet.of(StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE), ownerOnly(FILE_PERMISSIONS));
+        try {
+            // Lock before touching the key so two first runs can't each create a different one
+            lock(log);
+            restrictToOwner(logFile, FILE_PERMISSIONS);
+
+            // A new key would make every existing fingerprint unmatchable, so only
+            // create one for a history that holds no records yet
+            Path keyFile = directory.resolve(KEY_FILE);
+            boolean hasRecords = log.size() > LOG_HEADER_SIZE;
+            if (hasRecords && !Files.exists(keyFile)) {
+                throw new IOException("History key is missing, so the existing history cannot be checked: " + keyFile);
+            }
+            byte[] key = loadOrCreateKey(keyFile);
+            long keyCheck = keyCheck(key);
+            if (hasRecords) {
+                verifyLogHeader(log, keyCheck);
+            } else {
+                writeLogHeader(log, keyCheck);
+            }
+
+            LongHashSet index = new LongHashSet(16);
+            long checkpoint = loadIndex(directory.resolve(INDEX_FILE), log.size(), keyCheck, index);
+            if (checkpoint == 0) {
+                index.ensureCapacity(estimateRecords(log.size()));
+            }
+            long end = scanHeaders(log, Math.max(checkpoint, LOG_HEADER_SIZE), index);
+
+            // Drop a partially written trailing record left behind by a crash
+            if (end < log.size()) {
+                log.truncate(end);
+            }
+            log.position(end);
+
+            // Checkpoint straight away so repeated unclean exits don't grow the rescan
+            if (end != checkpoint) {
+                log.force(false);
+                saveIndex(directory.resolve(INDEX_FILE), end, keyCheck, index);
+            }
+            return new PasswordHistory(directory, log, key, keyCheck, index);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    public synchronized boolean contains(String password) {
+        return index.contains(fingerprint(password));
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized void append(String password) throws IOException {
+        long fingerprint = fingerprint(password);
+        byte[] iv = new byte[IV_SIZE];
+        random.nextBytes(iv);
+        byte[] ciphertext = encrypt(password.getBytes(StandardCharsets.UTF_8), iv);
+
+        int bodyLength = Long.BYTES + IV_SIZE + ciphertext.length;
+        if (bodyLength > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Password is too long to record in history");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bodyLength);
+        record.putInt(bodyLength).putLong(fingerprint).put(iv).put(ciphertext).flip();
+        long start = log.position();
+        try {
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+        } catch (IOException e) {
+            rollback(start, e);
+            throw e;
+        }
+        index.add(fingerprint);
+
+        if (++pendingSync >= SYNC_BATCH) {
+            sync();
+        }
+        // Grows with the index so rewriting it stays amortised O(1) per append
+        if (++sinceCheckpoint >= Math.max(CHECKPOINT_INTERVAL, index.size() / 4)) {
+            checkpoint();
+        }
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        sync();
+        saveIndex(directory.resolve(INDEX_FILE), log.size(), keyCheck, index);
+        sinceCheckpoint = 0;
+    }
+
+    public synchronized void sync() throws IOException {
+        if (pendingSync > 0) {
+            log.force(false);
+            pendingSync = 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!log.isOpen()) {
+            return;
+        }
+        try {
+            checkpoint();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Removes a partially written record so later appends do not land after it;
+     * a torn record mid-log would make the next startup refuse to open the log.
+     * If that fails the log is closed without a checkpoint and this instance is unusable.
+     */
+    private void rollback(long start, IOException cause) {
+        try {
+            log.truncate(start);
+            log.position(start);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            try {
+                log.close();
+            } catch (IOException closeError) {
+                cause.addSuppressed(closeError);
+            }
+        }
+    }
+
+    private static void lock(FileChannel log) throws IOException {
+        FileLock lock;
+        try {
+            lock = log.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Already held by another instance in this JVM
+        }
+        if (lock == null) {
+            throw new IOException("Password history is in use by another instance");
+        }
+    }
+
+    private long fingerprint(String password) {
+        return hmac(fingerprintKey, password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Identifies the key without revealing it; stored in the log and index headers
+    private static long keyCheck(byte[] key) {
+        return hmac(new SecretKeySpec(key, 32, 32, "HmacSHA256"), KEY_CHECK_LABEL);
+    }
+
+    private static long hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return ByteBuffer.wrap(mac.doFinal(data)).getLong();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    // Starts an empty log (or one torn while its header was written) under this key
+    private static void writeLogHeader(FileChannel log, long keyCheck) throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        header.putInt(LOG_MAGIC).putLong(keyCheck).flip();
+        while (header.hasRemaining()) {
+            log.write(header, header.position());
+        }
+        log.force(false);
+    }
+
+    private static void verifyLogHeader(FileChannel log, long keyCheck) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (log.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < LOG_HEADER_SIZE || header.getInt() != LOG_MAGIC) {
+            throw new IOException("Not a password history log");
+        }
+        if (header.getLong() != keyCheck) {
+            throw new IOException("History key does not match the existing history");
+        }
+    }
+
+    private byte[] encrypt(byte[] plaintext, byte[] iv) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, cipherKey, new GCMParameterSpec(TAG_BITS, iv));
+            return cipher.doFinal(plaintext);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    private static byte[] loadOrCreateKey(Path keyFile) throws IOException {
+        if (Files.exists(keyFile)) {
+            restrictToOwner(keyFile, FILE_PERMISSIONS);
+            byte[] key = Files.readAllBytes(keyFile);
+            if (key.length != 64) {
+                throw new IOException("History key file is corrupt: " + keyFile);
+            }
+            return key;
+        }
+
+        byte[] key = new byte[64];
+        random.nextBytes(key);
+        Path temp = keyFile.resolveSibling(KEY_FILE + ".tmp");
+        try (FileChannel channel = createOwnerOnly(temp)) {
+            ByteBuffer buffer = ByteBuffer.wrap(key);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, keyFile, StandardCopyOption.ATOMIC_MOVE);
+        return key;
+    }
+
+    /**
+     * Loads the fingerprint checkpoint into {@code index} and returns the log
+     * offset it covers, or 0 if there is no usable checkpoint.
+     */
+    private static long loadIndex(Path indexFile, long logSize, long keyCheck, LongHashSet index) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            if (header.remaining() < header.capacity() || header.getInt() != INDEX_MAGIC
+                    || header.getLong() != keyCheck) {
+                return 0;
+            }
+            long covered = header.getLong();
+            int count = header.getInt();
+            if (covered < LOG_HEADER_SIZE || covered > logSize || count < 0
+                    || channel.size() != header.capacity() + (long) count * Long.BYTES) {
+                return 0;
+            }
+            index.ensureCapacity((long) count + estimateRecords(logSize - covered));
+
+            ByteBuffer body = ByteBuffer.allocate(64 * 1024);
+            for (int remaining = count; remaining > 0; ) {
+                body.clear();
+                body.limit(Math.min(body.capacity(), remaining * Long.BYTES));
+                readFully(channel, body);
+                body.flip();
+                if (body.remaining() % Long.BYTES != 0 || !body.hasRemaining()) {
+                    index.clear();
+                    return 0;
+                }
+                while (body.hasRemaining()) {
+                    index.add(body.getLong());
+                    remaining--;
+                }
+            }
+            return covered;
+        }
+    }
+
+    private static void saveIndex(Path indexFile, long covered, long keyCheck, LongHashSet index) throws IOException {
+        Path temp = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+        try (FileChannel channel = createOwnerOnly(temp)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(INDEX_MAGIC).putLong(keyCheck).putLong(covered).putInt(index.size());
+            for (long value : index.toArray()) {
+                if (buffer.remaining() < Long.BYTES) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(value);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int estimateRecords(long bytes) {
+        return (int) Math.min(bytes / ESTIMATED_RECORD_SIZE, 1 << 28);
+    }
+
+    /**
+     * Reads record headers from {@code start} onwards, adding each fingerprint
+     * to {@code index}. Returns the offset just past the last complete record;
+     * anything beyond it is a record torn by a crash and runs to the end of the
+     * log. A malformed header with data after it means the log is corrupt, and
+     * is reported rather than truncated so no valid records are lost.
+     */
+    private static long scanHeaders(FileChannel log, long start, LongHashSet index) throws IOException {
+        long size = log.size();
+        long offset = start;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        while (offset + HEADER_SIZE <= size) {
+            buffer.clear();
+            if (log.read(buffer, offset) <= 0) {
+                break;
+            }
+            buffer.flip();
+
+            // Parse every header in this chunk, skipping over the encrypted bodies
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int recordStart = buffer.position();
+                int bodyLength = buffer.getInt();
+                if (bodyLength < Long.BYTES + IV_SIZE || bodyLength > MAX_RECORD_SIZE) {
+                    // Some file systems leave a zero-filled tail after a crash
+                    if (isZeroFilled(log, offset, size)) {
+                        return offset;
+                    }
+                    throw new IOException("Password history is corrupt at offset " + offset);
+                }
+                if (offset + Integer.BYTES + bodyLength > size) {
+                    return offset;
+                }
+                index.add(buffer.getLong());
+                offset += Integer.BYTES + bodyLength;
+
+                int next = recordStart + Integer.BYTES + bodyLength;
+                if (next > buffer.limit()) {
+                    break;
+                }
+                buffer.position(next);
+            }
+        }
+        return offset;
+    }
+
+    private static boolean isZeroFilled(FileChannel log, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (long offset = from; offset < size; ) {
+            buffer.clear();
+            int read = log.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) {
+                    return false;
+                }
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * Creates {@code file} afresh with owner-only permissions set atomically at
+     * creation, so it is never briefly readable by other users.
+     */
+    private static FileChannel createOwnerOnly(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        return FileChannel.open(file, EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                ownerOnly(FILE_PERMISSIONS));
+    }
+
+    // Non-POSIX file systems (Windows) get no attributes and rely on the user profile's ACLs
+    private static FileAttribute<?>[] ownerOnly(String permissions) {
+        if (!POSIX) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[]{
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))
+        };
+    }
+
+    // Tightens files left behind with the default mode by earlier versions
+    private static void restrictToOwner(Path path, String permissions) throws IOException {
+        if (POSIX) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Open-addressing set of {@code long} fingerprints; avoids boxing so
+     * millions of entries stay compact and load quickly.
+     */
+    static final class LongHashSet {
+        private long[] table;
+        private boolean containsZero;
+        private int size;
+
+        LongHashSet(int expected) {
+            table = new long[capacityFor(expected)];
+        }
+
+        void ensureCapacity(long expected) {
+            int capacity = capacityFor(expected);
+            if (capacity > table.length) {
+                rehash(capacity);
+            }
+        }
+
+        boolean contains(long value) {
+            if (value == 0) {
+                return containsZero;
+            }
+            int mask = table.length - 1;
+            for (int slot = mix(value) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                if (table[slot] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long value) {
+            if (value == 0) {
+                if (!containsZero) {
+                    containsZero = true;
+                    size++;
+                }
+                return;
+            }
+            if ((size + 1) * 2L > table.length) {
+                rehash(table.length << 1);
+            }
+            if (insert(table, value)) {
+                size++;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            containsZero = false;
+            size = 0;
+        }
+
+        long[] toArray() {
+            long[] values = new long[size];
+            int i = 0;
+            if (containsZero) {
+                values[i++] = 0;
+            }
+            for (long value : table) {
+                if (value != 0) {
+                    values[i++] = value;
+                }
+            }
+            return values;
+        }
+
+        // Keeps the load factor at or below one half
+        private static int capacityFor(long expected) {
+            long needed = Math.min(Math.max(16, expected * 2), 1 << 30);
+            return (int) Long.highestOneBit(needed - 1) << 1;
+        }
+
+        private void rehash(int capacity) {
+            long[] larger = new long[capacity];
+            for (long value : table) {
+                if (value != 0) {
+                    insert(larger, value);
+                }
+            }
+            table = larger;
+        }
+
+        private static boolean insert(long[] table, long value) {
+            int mask = table.length - 1;
+            int slot = mix(value) & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = value;
+            return true;
+        }
+
+        private static int mix(long value) {
+            // Fingerprints are already HMAC output, so folding the halves is enough
+            return (int) (value ^ (value >>> 32));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Random Password Generator
+ * Copyright (c) 2025 Jericho Crosby (Chalwk)
+ * <p>
+ * This project is licensed under the MIT License.
+ * See LICENSE file for details.
+ */
+
+package com.chalwk.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHistoryTest {
+    // Log header: int magic + long key check
+    private static final int LOG_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedPasswordsSurviveReopen() throws IOException {
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            history.append("alpha-password");
+            history.append("bravo-password");
+            assertTrue(history.contains("alpha-password"));
+        }
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertEquals(2, history.size());
+            assertTrue(history.contains("alpha-password"));
+            assertTrue(history.contains("bravo-password"));
+            assertFalse(history.contains("charlie-password"));
+        }
+    }
+
+    @Test
+    void tornTrailingRecordIsDropped() throws IOException {
+        appendAll("password00", "password01", "password02");
+        long fullSize = Files.size(log());
+        long recordSize = (fullSize - LOG_HEADER_SIZE) / 3;
+        truncateLog(fullSize - 5);
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertEquals(2, history.size());
+            assertTrue(history.contains("password00"));
+            assertTrue(history.contains("password01"));
+            assertFalse(history.contains("password02"));
+            assertEquals(LOG_HEADER_SIZE + 2 * recordSize, Files.size(log()));
+
+            history.append("password03");
+        }
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertEquals(3, history.size());
+            assertTrue(history.contains("password03"));
+        }
+    }
+
+    @Test
+    void corruptHeaderMidLogFailsWithoutTruncating() throws IOException {
+        String[] passwords = new String[10];
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = String.format("password%02d", i);
+        }
+        appendAll(passwords);
+        Files.delete(index());
+
+        long size = Files.size(log());
+        long recordSize = (size - LOG_HEADER_SIZE) / passwords.length;
+        try (FileChannel channel = FileChannel.open(log(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 3), LOG_HEADER_SIZE + 4 * recordSize);
+        }
+
+        assertThrows(IOException.class, () -> PasswordHistory.open(directory));
+        assertEquals(size, Files.size(log()));
+    }
+
+    @Test
+    void staleIndexFallsBackToRescan() throws IOException {
+        appendAll("alpha-password", "bravo-password");
+        byte[] staleIndex = Files.readAllBytes(index());
+        appendAll("charlie-password");
+        Files.write(index(), staleIndex);
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertEquals(3, history.size());
+            assertTrue(history.contains("alpha-password"));
+            assertTrue(history.contains("charlie-password"));
+        }
+    }
+
+    @Test
+    void mismatchedIndexIsIgnored() throws IOException {
+        appendAll("alpha-password", "bravo-password");
+        Files.write(index(), new byte[64]);
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertEquals(2, history.size());
+            assertTrue(history.contains("bravo-password"));
+        }
+    }
+
+    @Test
+    void missingKeyWithRecordsFailsToOpen() throws IOException {
+        appendAll("alpha-password");
+        long size = Files.size(log());
+        Files.delete(directory.resolve("history.key"));
+
+        assertThrows(IOException.class, () -> PasswordHistory.open(directory));
+        assertFalse(Files.exists(directory.resolve("history.key")));
+        assertEquals(size, Files.size(log()));
+    }
+
+    @Test
+    void mismatchedKeyFailsToOpen() throws IOException {
+        appendAll("alpha-password");
+        Path keyFile = directory.resolve("history.key");
+        byte[] key = Files.readAllBytes(keyFile);
+        key[key.length - 1] ^= 1;
+        Files.write(keyFile, key);
+
+        assertThrows(IOException.class, () -> PasswordHistory.open(directory));
+    }
+
+    @Test
+    void missingKeyWithEmptyHistoryCreatesOne() throws IOException {
+        appendAll();
+        Files.delete(directory.resolve("history.key"));
+
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            history.append("alpha-password");
+        }
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            assertTrue(history.contains("alpha-password"));
+        }
+    }
+
+    @Test
+    void secondOpenFailsWhileLocked() throws IOException {
+        try (PasswordHistory ignored = PasswordHistory.open(directory)) {
+            assertThrows(IOException.class, () -> PasswordHistory.open(directory));
+        }
+    }
+
+    @Test
+    void zeroIsAValidFingerprint() {
+        PasswordHistory.LongHashSet set = new PasswordHistory.LongHashSet(16);
+        assertFalse(set.contains(0));
+
+        set.add(0);
+        set.add(0);
+        set.add(42);
+
+        assertTrue(set.contains(0));
+        assertEquals(2, set.size());
+        assertArrayEquals(new long[]{0, 42}, set.toArray());
+    }
+
+    @Test
+    void setGrowsWithoutLosingValues() {
+        PasswordHistory.LongHashSet set = new PasswordHistory.LongHashSet(16);
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            set.add(i * 0x9E3779B97F4A7C15L);
+        }
+        set.ensureCapacity(4L * count);
+
+        assertEquals(count, set.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue(set.contains(i * 0x9E3779B97F4A7C15L));
+        }
+        assertFalse(set.contains(count * 0x9E3779B97F4A7C15L));
+        assertEquals(count, set.toArray().length);
+    }
+
+    private void appendAll(String... passwords) throws IOException {
+        try (PasswordHistory history = PasswordHistory.open(directory)) {
+            for (String password : passwords) {
+                history.append(password);
+            }
+        }
+    }
+
+    private void truncateLog(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(log(), StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private Path log() {
+        return directory.resolve("history.log");
+    }
+
+    private Path index() {
+        return directory.resolve("history.idx");
+    }
+}
@@ -0,0 +1,459 @@
+/**
+ * Random Password Generator
+ * Copyright (c) 2025 Jericho Crosby (Chalwk)
+ * <p>
+ * This project is licensed under the MIT License.
+ * See LICENSE file for details.
+ */
+
+package com.chalwk.util;
+
+import com.chalwk.model.PasswordConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statistical self-test for {@link PasswordGeneratorEngine}'s output distribution.
+ * <p>
+ * The engine forces one character from each selected class and shuffles, so
+ * characters are not uniform over the pool. Instead the exact distribution is
+ * derived from the character classes each configuration should draw from,
+ * written out here independently of the engine, and every position and
+ * adjacent position pair is checked against it with a chi-square test, along
+ * with the serial correlation between neighbours. Counts cover all printable
+ * ASCII, so an excluded character that leaks through has an expected count of
+ * zero and fails outright. Samples are generated on a fork-join pool and
+ * counted into per-thread {@code long[]} histograms that are merged at the end.
+ * <p>
+ * Tagged {@code audit} and excluded from the default build; run it with
+ * {@code mvn test -Paudit -Daudit.samples=1000000000}. {@code audit.samples} is
+ * per configuration. By default each thread draws from {@link ThreadLocalRandom}
+ * so that the engine's own logic is what gets measured; {@code -Daudit.secure=true}
+ * uses a {@link SecureRandom} per task instead.
+ */
+@Tag("audit")
+class RandomnessAuditTest {
+    private static final double ALPHA = 1e-4;
+    private static final long LEAF_SAMPLES = 1 << 16;
+    private static final double MIN_EXPECTED = 5;
+    private static final long SAMPLES = Long.getLong("audit.samples", 10_000_000L);
+    private static final boolean SECURE = Boolean.getBoolean("audit.secure");
+
+    // Expected character classes, deliberately not taken from PasswordGeneratorEngine
+    private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+    private static final String NUMBERS = "0123456789";
+    private static final String SYMBOLS = "!@#$%^&*()_+-=[]{}|;:,.<>?";
+    private static final String UPPERCASE_NO_SIMILAR = "ABCDEFGHIJKMNPQRSTUVWXYZ";
+    private static final String LOWERCASE_NO_SIMILAR = "abcdefghjkmnpqrstuvwxyz";
+    private static final String NUMBERS_NO_SIMILAR = "23456789";
+    private static final String SYMBOLS_NO_AMBIGUOUS = "!@#$%^&*_+-=?";
+
+    // Printable ASCII, the range every histogram covers
+    private static final char FIRST_CHAR = '!';
+    private static final int ALPHABET = '~' - FIRST_CHAR + 1;
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("cases")
+    void outputMatchesExpectedDistribution(AuditCase auditCase) {
+        assertTrue(audit(ForkJoinPool.commonPool(), auditCase.config, auditCase.classes, SAMPLES, SECURE),
+                auditCase + " failed; see the report above");
+    }
+
+    static Stream<AuditCase> cases() {
+        return Stream.of(
+                new AuditCase(new PasswordConfig(16, true, true, true, true, false, false, 50),
+                        UPPERCASE, LOWERCASE, NUMBERS, SYMBOLS),
+                new AuditCase(new PasswordConfig(16, true, true, true, true, true, true, 50),
+                        UPPERCASE_NO_SIMILAR, LOWERCASE_NO_SIMILAR, NUMBERS_NO_SIMILAR, SYMBOLS_NO_AMBIGUOUS),
+                new AuditCase(new PasswordConfig(4, true, true, true, true, false, false, 50),
+                        UPPERCASE, LOWERCASE, NUMBERS, SYMBOLS),
+                new AuditCase(new PasswordConfig(8, false, true, true, false, true, false, 50),
+                        LOWERCASE_NO_SIMILAR, NUMBERS_NO_SIMILAR),
+                new AuditCase(new PasswordConfig(12, true, false, false, true, false, true, 50),
+                        UPPERCASE, SYMBOLS_NO_AMBIGUOUS),
+                new AuditCase(new PasswordConfig(6, false, false, true, false, false, false, 50),
+                        NUMBERS)
+        );
+    }
+
+    /**
+     * Audits {@code config}, which should draw one forced character from each of
+     * {@code classes} and fill the rest from their union.
+     */
+    private static boolean audit(ForkJoinPool pool, PasswordConfig config, String[] classes,
+                                 long samples, boolean secure) {
+        Model model = new Model(config.getLength(), classes);
+        Queue<Histogram> histograms = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Histogram> local = ThreadLocal.withInitial(() -> {
+            Histogram histogram = new Histogram(model);
+            histograms.add(histogram);
+            return histogram;
+        });
+
+        long start = System.nanoTime();
+        pool.invoke(new SampleTask(config, local, secure, 0, samples));
+        Histogram total = new Histogram(model);
+        for (Histogram histogram : histograms) {
+            total.merge(histogram);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s%n  %,d samples in %.1fs on %d threads (%,.0f/s)%n",
+                describe(config), total.samples, seconds, pool.getParallelism(), total.samples / seconds);
+
+        int length = model.length;
+        int size = model.size;
+        boolean passed = true;
+
+        // Every position should follow the same marginal distribution
+        double worstPosition = 1;
+        for (int i = 0; i < length; i++) {
+            double p = chiSquare(total.positions, i * size, model.marginal, total.samples);
+            worstPosition = Math.min(worstPosition, p);
+        }
+        passed &= report("position x character", worstPosition, length);
+
+        // Every adjacent pair should follow the pair distribution implied by the shuffle
+        double worstBigram = 1;
+        double worstCorrelation = 1;
+        double maxCorrelationError = 0;
+        for (int i = 0; i + 1 < length; i++) {
+            double p = chiSquare(total.bigrams, i * size * size, model.pair, total.samples);
+            worstBigram = Math.min(worstBigram, p);
+
+            double r = correlation(total.bigrams, i * size * size, size);
+            double z = (r - model.correlation) * Math.sqrt(total.samples)
+                    / Math.max(1e-12, 1 - model.correlation * model.correlation);
+            worstCorrelation = Math.min(worstCorrelation, normalTail(z));
+            maxCorrelationError = Math.max(maxCorrelationError, Math.abs(r - model.correlation));
+        }
+        if (length > 1) {
+            passed &= report("bigram", worstBigram, length - 1);
+            passed &= report(String.format("serial correlation (expected %.5f, max error %.5f)",
+                    model.correlation, maxCorrelationError), worstCorrelation, length - 1);
+        }
+
+        System.out.println();
+        return passed;
+    }
+
+    private static boolean report(String name, double worstP, int tests) {
+        // Bonferroni correction across the positions or pairs tested
+        boolean passed = worstP >= ALPHA / tests;
+        System.out.printf("  %-60s min p = %.3g  %s%n", name, worstP, passed ? "PASS" : "FAIL");
+        return passed;
+    }
+
+    private static String describe(PasswordConfig config) {
+        StringBuilder description = new StringBuilder("Length ").append(config.getLength()).append(':');
+        if (config.isIncludeUppercase()) description.append(" upper");
+        if (config.isIncludeLowercase()) description.append(" lower");
+        if (config.isIncludeNumbers()) description.append(" numbers");
+        if (config.isIncludeSymbols()) description.append(" symbols");
+        if (config.isExcludeSimilar()) description.append(", no similar");
+        if (config.isExcludeAmbiguous()) description.append(", no ambiguous");
+        return description.toString();
+    }
+
+    /**
+     * Chi-square goodness of fit for {@code expected.length} cells of
+     * {@code observed} starting at {@code offset}. Cells with an expected count
+     * below {@link #MIN_EXPECTED} are pooled into a single bin.
+     */
+    private static double chiSquare(long[] observed, int offset, double[] expected, long samples) {
+        double statistic = 0;
+        int cells = 0;
+        long pooledObserved = 0;
+        double pooledExpected = 0;
+
+        for (int c = 0; c < expected.length; c++) {
+            long o = observed[offset + c];
+            double e = expected[c] * samples;
+            if (e == 0) {
+                if (o > 0) {
+                    return 0; // A character or pair the generator can never produce
+                }
+            } else if (e < MIN_EXPECTED) {
+                pooledObserved += o;
+                pooledExpected += e;
+            } else {
+                statistic += (o - e) * (o - e) / e;
+                cells++;
+            }
+        }
+        if (pooledExpected > 0) {
+            statistic += (pooledObserved - pooledExpected) * (pooledObserved - pooledExpected) / pooledExpected;
+            cells++;
+        }
+        if (cells < 2) {
+            return 1;
+        }
+        return gammaQ((cells - 1) / 2.0, statistic / 2);
+    }
+
+    private static double correlation(long[] bigrams, int offset, int size) {
+        double n = 0, sumX = 0, sumY = 0, sumXX = 0, sumYY = 0, sumXY = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                long count = bigrams[offset + x * size + y];
+                n += count;
+                sumX += (double) count * x;
+                sumY += (double) count * y;
+                sumXX += (double) count * x * x;
+                sumYY += (double) count * y * y;
+                sumXY += (double) count * x * y;
+            }
+        }
+        double covariance = n * sumXY - sumX * sumY;
+        double variance = Math.sqrt((n * sumXX - sumX * sumX) * (n * sumYY - sumY * sumY));
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    // Two-sided p-value of a standard normal deviate: erfc(|z| / sqrt(2))
+    private static double normalTail(double z) {
+        return gammaQ(0.5, z * z / 2);
+    }
+
+    // Regularized upper incomplete gamma function Q(a, x)
+    private static double gammaQ(double a, double x) {
+        if (x <= 0) {
+            return 1;
+        }
+        double logPrefix = -x + a * Math.log(x) - logGamma(a);
+
+        if (x < a + 1) {
+            // Series expansion of P(a, x)
+            double term = 1 / a;
+            double sum = term;
+            for (int n = 1; n < 10_000; n++) {
+                term *= x / (a + n);
+                sum += term;
+                if (Math.abs(term) < Math.abs(sum) * 1e-15) {
+                    break;
+                }
+            }
+            return Math.max(0, 1 - sum * Math.exp(logPrefix));
+        }
+
+        // Lentz's continued fraction for Q(a, x)
+        double tiny = 1e-300;
+        double b = x + 1 - a;
+        double c = 1 / tiny;
+        double d = 1 / b;
+        double h = d;
+        for (int n = 1; n < 10_000; n++) {
+            double an = -n * (n - a);
+            b += 2;
+            d = an * d + b;
+            if (Math.abs(d) < tiny) d = tiny;
+            c = b + an / c;
+            if (Math.abs(c) < tiny) c = tiny;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-15) {
+                break;
+            }
+        }
+        return Math.exp(logPrefix) * h;
+    }
+
+    // Lanczos approximation
+    private static double logGamma(double x) {
+        double[] coefficients = {
+                76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5
+        };
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+
+    private static int index(char c) {
+        return c - FIRST_CHAR;
+    }
+
+    /**
+     * Exact output distribution of the engine for one configuration.
+     * <p>
+     * A password is {@code m} forced slots (one uniform draw from each class)
+     * plus {@code length - m} uniform draws from the whole pool, uniformly
+     * permuted. Any position is therefore a uniformly chosen slot, and any two
+     * distinct positions are a uniformly chosen pair of distinct slots.
+     */
+    private static final class Model {
+        final int length;
+        final int size;
+        final double[] marginal;
+        final double[] pair;
+        final double correlation;
+
+        Model(int length, String[] classes) {
+            String charPool = String.join("", classes);
+            int forced = classes.length;
+            if (charPool.isEmpty() || length < forced) {
+                throw new IllegalArgumentException("Configuration must allow at least one character per class");
+            }
+
+            this.length = length;
+            this.size = ALPHABET;
+
+            // slotSum[c] is the expected number of occurrences of c in one password;
+            // slotSquares[x][y] sums, over slots, P(slot is x) * P(slot is y)
+            double poolProbability = 1.0 / charPool.length();
+            int free = length - forced;
+            double[] slotSum = new double[size];
+            double[][] slotSquares = new double[size][size];
+            for (char x : charPool.toCharArray()) {
+                slotSum[index(x)] += free * poolProbability;
+                for (char y : charPool.toCharArray()) {
+                    slotSquares[index(x)][index(y)] += free * poolProbability * poolProbability;
+                }
+            }
+            for (String characters : classes) {
+                double probability = 1.0 / characters.length();
+                for (char x : characters.toCharArray()) {
+                    slotSum[index(x)] += probability;
+                    for (char y : characters.toCharArray()) {
+                        slotSquares[index(x)][index(y)] += probability * probability;
+                    }
+                }
+            }
+
+            marginal = new double[size];
+            pair = new double[size * size];
+            double meanX = 0, meanXX = 0, meanXY = 0;
+            for (int x = 0; x < size; x++) {
+                marginal[x] = slotSum[x] / length;
+                meanX += marginal[x] * x;
+                meanXX += marginal[x] * x * x;
+                if (length < 2) {
+                    continue;
+                }
+                for (int y = 0; y < size; y++) {
+                    double p = (slotSum[x] * slotSum[y] - slotSquares[x][y]) / ((double) length * (length - 1));
+                    pair[x * size + y] = Math.max(0, p);
+                    meanXY += pair[x * size + y] * x * y;
+                }
+            }
+            double variance = meanXX - meanX * meanX;
+            correlation = variance == 0 ? 0 : (meanXY - meanX * meanX) / variance;
+        }
+    }
+
+    private static final class AuditCase {
+        final PasswordConfig config;
+        final String[] classes;
+
+        AuditCase(PasswordConfig config, String... classes) {
+            this.config = config;
+            this.classes = classes;
+        }
+
+        @Override
+        public String toString() {
+            return describe(config);
+        }
+    }
+
+    /**
+     * Per-thread counts: {@code positions[i * size + c]} and
+     * {@code bigrams[(i * size + c1) * size + c2]} for adjacent positions i, i + 1.
+     */
+    private static final class Histogram {
+        final Model model;
+        final long[] positions;
+        final long[] bigrams;
+        final int[] indices;
+        long samples;
+
+        Histogram(Model model) {
+            this.model = model;
+            this.positions = new long[model.length * model.size];
+            this.bigrams = new long[Math.max(0, model.length - 1) * model.size * model.size];
+            this.indices = new int[model.length];
+        }
+
+        void record(String password) {
+            int length = model.length;
+            int size = model.size;
+            if (password.length() != length) {
+                throw new IllegalStateException("Generated password has length " + password.length()
+                        + ", expected " + length);
+            }
+            for (int i = 0; i < length; i++) {
+                char c = password.charAt(i);
+                int index = index(c);
+                if (index < 0 || index >= ALPHABET) {
+                    throw new IllegalStateException("Generated character '" + c + "' is not printable ASCII");
+                }
+                indices[i] = index;
+                positions[i * size + index]++;
+            }
+            for (int i = 0; i + 1 < length; i++) {
+                bigrams[(i * size + indices[i]) * size + indices[i + 1]]++;
+            }
+            samples++;
+        }
+
+        void merge(Histogram other) {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] += other.positions[i];
+            }
+            for (int i = 0; i < bigrams.length; i++) {
+                bigrams[i] += other.bigrams[i];
+            }
+            samples += other.samples;
+        }
+    }
+
+    private static final class SampleTask extends RecursiveAction {
+        private final PasswordConfig config;
+        private final ThreadLocal<Histogram> local;
+        private final boolean secure;
+        private final long from;
+        private final long to;
+
+        SampleTask(PasswordConfig config, ThreadLocal<Histogram> local, boolean secure, long from, long to) {
+            this.config = config;
+            this.local = local;
+            this.secure = secure;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SAMPLES) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new SampleTask(config, local, secure, from, middle),
+                        new SampleTask(config, local, secure, middle, to));
+                return;
+            }
+
+            Histogram histogram = local.get();
+            Random random = secure ? new SecureRandom() : ThreadLocalRandom.current();
+            for (long i = from; i < to; i++) {
+                histogram.record(PasswordGeneratorEngine.generatePassword(config, random));
+            }
+        }
+    }
+}